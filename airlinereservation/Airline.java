@@ -2,41 +2,174 @@
 
 package airlinereservation;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
 import graph.Graph;
 import graph.Path;
 
+// An Airline can be shared between threads: searches and bookings run concurrently,
+// while fare updates wait for them and run alone.
+// The cheapest Flight for each origin, destination and fare class is computed once and then shared by
+// every search for it (with its rendered output) until a fare update clears the cache.
 public class Airline {
+	// fare classes, in the order their fares are stored on every route
+	public static final int ECONOMY = 0;
+	public static final int BUSINESS = 1;
+	
 	private Graph<String> g;
 	private static final String[] CITIES = 
 			{"new york", "chicago", "san francisco", 
 			"denver", "dallas", "miami", "san diego", "la"};
+	private static final String[] FARE_CLASSES = {"economy", "business"};
+	// adjustFare never takes a fare below this many cents
+	public static final long MINIMUM_FARE = 100;
+	private ReadWriteLock lock = new ReentrantReadWriteLock();
+	private LongAdder bookings = new LongAdder();
+	// flights[(fareClass * CITIES.length + origin) * CITIES.length + dest] is the cheapest Flight, or null if not computed yet.
+	// Entries are only written while holding the read lock and only cleared while holding the write lock.
+	private Flight[] flights = new Flight[FARE_CLASSES.length * CITIES.length * CITIES.length];
 
+	// fares are in cents: {economy, business}
 	public Airline() {
-		g = new Graph<String>(CITIES.length, CITIES);
-		g.addEdge("new york", "chicago", 75)
-		.addEdge("new york", "denver", 100)
-		.addEdge("new york", "dallas", 125)
-		.addEdge("new york", "miami", 90)
-		.addEdge("chicago", "san francisco", 25)
-		.addEdge("chicago", "denver", 20)
-		.addEdge("denver", "san francisco", 75)
-		.addEdge("denver", "la", 100)
-		.addEdge("dallas", "la", 80)
-		.addEdge("dallas", "san diego", 90)
-		.addEdge("miami", "dallas", 50)
-		.addEdge("san francisco", "la", 45)
-		.addEdge("san diego", "la", 45);
+		g = new Graph<String>(CITIES.length, CITIES, FARE_CLASSES.length);
+		g.addEdge("new york", "chicago", new long[] {7500, 21000})
+		.addEdge("new york", "denver", new long[] {10000, 27500})
+		.addEdge("new york", "dallas", new long[] {12500, 32000})
+		.addEdge("new york", "miami", new long[] {9000, 24500})
+		.addEdge("chicago", "san francisco", new long[] {2500, 9000})
+		.addEdge("chicago", "denver", new long[] {2000, 7500})
+		.addEdge("denver", "san francisco", new long[] {7500, 19500})
+		.addEdge("denver", "la", new long[] {10000, 26000})
+		.addEdge("dallas", "la", new long[] {8000, 22000})
+		.addEdge("dallas", "san diego", new long[] {9000, 23500})
+		.addEdge("miami", "dallas", new long[] {5000, 14000})
+		.addEdge("san francisco", "la", new long[] {4500, 12500})
+		.addEdge("san diego", "la", new long[] {4500, 12000});
 	}
 	
 	// precondition: origin and dest are valid labels for the composed graph
 	// if the labels are not valid, the graph will throw an IllegalArgumentException "label does not exist in graph"
-	// return: null if there is no path from origin to dest, a Flight object if there is 
+	// return: null if there is no path from origin to dest, a Flight object with the cheapest economy fare if there is 
 	public Flight findCheapest(String origin, String dest) {
-		Path<String> path = g.findShortestLabeledPath(origin, dest);
-		return path == null ? null : new Flight(origin, dest, path.getWeight(), path.getPath());
+		return findCheapest(origin, dest, ECONOMY);
+	}
+	
+	// fareClass must be ECONOMY or BUSINESS
+	// return: null if there is no path from origin to dest, a Flight object with the cheapest fare in that class if there is 
+	// the same Flight object is returned for repeated searches until a fare changes
+	public Flight findCheapest(String origin, String dest, int fareClass) {
+		if (fareClass < 0 || fareClass >= FARE_CLASSES.length)
+			throw new IllegalArgumentException("fare class must be in the range 0 to " + (FARE_CLASSES.length - 1));
+		int o = g.getVertex(origin);
+		int d = g.getVertex(dest);
+		int slot = (fareClass * CITIES.length + o) * CITIES.length + d;
+		
+		lock.readLock().lock();
+		try {
+			// racing searches may both compute the flight; either copy is correct and one of them is kept
+			Flight flight = flights[slot];
+			if (flight != null)
+				return flight;
+			
+			// unreachable pairs are answered by the graph's reachability index without running dijkstra's
+			if (!g.pathExists(o, d))
+				return null;
+			Path<String> path = g.findShortestLabeledPath(o, d, fareClass);
+			if (path == null)
+				return null;
+			
+			// use the graph's labels rather than the caller's strings so equal cities share one String
+			flight = new Flight(g.getLabel(o), g.getLabel(d), path.getWeight(), path.getPath());
+			flights[slot] = flight;
+			return flight;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+	
+	// books the cheapest flight from origin to dest in the fare class
+	// return: the booked Flight, or null if there is no path from origin to dest and nothing was booked
+	public Flight book(String origin, String dest, int fareClass) {
+		Flight flight = findCheapest(origin, dest, fareClass);
+		if (flight != null)
+			bookings.increment();
+		return flight;
+	}
+	
+	// return: the fare in cents of the direct route from origin to dest in the fare class, or -1 if there is no direct route
+	public long getFare(String origin, String dest, int fareClass) {
+		lock.readLock().lock();
+		try {
+			return g.getEdgeWeight(origin, dest, fareClass);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+	
+	// sets the fare in cents of the direct route from origin to dest in the fare class
+	// return: false if there is no direct route from origin to dest, in which case nothing changes
+	public boolean updateFare(String origin, String dest, int fareClass, long cents) {
+		lock.writeLock().lock();
+		try {
+			if (!g.isEdge(origin, dest))
+				return false;
+			g.setEdgeWeight(origin, dest, fareClass, cents);
+			// any cached flight may have used this route
+			Arrays.fill(flights, null);
+			return true;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+	
+	// changes the fare of the direct route from origin to dest in the fare class by percent (e.g. -10 for 10% off),
+	// never going below MINIMUM_FARE. The fare is read and written under one lock, so concurrent adjustments
+	// of the same route all apply.
+	// return: the new fare in cents, or -1 if there is no direct route from origin to dest, in which case nothing changes
+	public long adjustFare(String origin, String dest, int fareClass, int percent) {
+		lock.writeLock().lock();
+		try {
+			long fare = g.getEdgeWeight(origin, dest, fareClass);
+			if (fare == -1)
+				return -1;
+			fare = Math.max(MINIMUM_FARE, fare + fare * percent / 100);
+			g.setEdgeWeight(origin, dest, fareClass, fare);
+			// any cached flight may have used this route
+			Arrays.fill(flights, null);
+			return fare;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+	
+	// return: every direct route as a {origin, destination} pair
+	public String[][] getRoutes() {
+		lock.readLock().lock();
+		try {
+			List<String[]> routes = new ArrayList<>();
+			for (int o = 0; o < CITIES.length; o++)
+				for (int d: g.neighbors(o))
+					routes.add(new String[] {CITIES[o], CITIES[d]});
+			return routes.toArray(new String[0][]);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+	
+	public long getBookings() {
+		return bookings.sum();
 	}
 	
 	public String[] getCities() {
 		return CITIES;
 	}
+	
+	public String[] getFareClasses() {
+		return FARE_CLASSES;
+	}
 }
@@ -2,79 +2,156 @@
 
 package airlinereservation;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
+// A Flight is immutable, so Airline hands the same Flight to every search for the same route and fare class.
+// Its text and JSON forms are rendered once, the first time they are asked for, and reused afterwards.
 public class Flight {
-	
-	private String origin;
-	private String destination;
-	private double cost;
-	private List<String> route;
-	
-	public Flight(String origin, String destination, double cost, List<String> route) {
-		if (cost < 0)
+
+	private final String origin;
+	private final String destination;
+	private final long cents; // cost is kept in whole cents so sums of fares are exact
+	private final List<String> route;
+
+	// rendered forms, filled in on first use. Racing threads render equal copies, so no locking is needed;
+	// volatile makes sure a thread that sees the array also sees its contents.
+	private volatile byte[] info;
+	private volatile byte[] json;
+
+	// cents is the cost of the flight in cents
+	// route is copied, so later changes to the list do not affect this Flight. A route that is already
+	// immutable, such as Path.getPath(), is kept as is, since List.copyOf does not copy it again.
+	public Flight(String origin, String destination, long cents, List<String> route) {
+		if (cents < 0)
 			throw new IllegalArgumentException("cost must be >= $0");
-		
+
 		this.origin = origin;
 		this.destination = destination;
-		this.cost = cost;
-		this.route = route;
+		this.cents = cents;
+		this.route = List.copyOf(route);
 	}
-	
+
 	public String getOrigin() {
 		return origin;
 	}
 
-	public void setOrigin(String origin) {
-		this.origin = origin;
-	}
-	
-	
+
 	public String getDestination() {
 		return destination;
 	}
-	
-	
-	public void setDestination(String destination) {
-		this.destination = destination;
-	}
-	
-	
+
+
+	// cost in dollars
 	public double getCost() {
-		return cost;
+		return cents / 100.0;
 	}
-	
-	
-	public void setCost(double cost) {
-		if (cost < 0)
-			throw new IllegalArgumentException("cost must be >= $0");
-		this.cost = cost;
+
+
+	public long getCostInCents() {
+		return cents;
 	}
-	
-	
+
+
+	// the returned list cannot be modified
 	public List<String> getRoute() {
 		return route;
 	}
-	
-	
-	public void setRoute(List<String> route) {
-		this.route = route;
-	}
-	
-	
+
+
 	public void printInfo() {
-		String routeString = "";
-		for (int i = 0; i < route.size(); i++) 
-			routeString += route.get(i) + (i == route.size() - 1 ? "" : " -> ");
-	
-		System.out.printf("> Flight Information:%n"
-						+ "  From: %s%n"
-						+ "  To: %s%n"
-						+ "  Cost: $%.2f%n"
-						+ "  Route: %s%n",
-				origin, destination, cost, routeString);
+		byte[] bytes = infoBytes();
+		System.out.write(bytes, 0, bytes.length);
+		System.out.flush();
+	}
+
+
+	// - - - - pre-rendered output - - - - //
+	// the write methods copy the cached UTF-8 bytes straight to the stream without formatting anything
+
+	public String getInfo() {
+		return new String(infoBytes(), StandardCharsets.UTF_8);
+	}
+
+
+	public void writeInfo(OutputStream out) throws IOException {
+		out.write(infoBytes());
+	}
+
+
+	// {"origin":...,"destination":...,"cost":12.34,"costInCents":1234,"route":[...]}
+	public String toJson() {
+		return new String(jsonBytes(), StandardCharsets.UTF_8);
+	}
+
+
+	public void writeJson(OutputStream out) throws IOException {
+		out.write(jsonBytes());
+	}
+
+
+	private byte[] infoBytes() {
+		byte[] bytes = info;
+		if (bytes == null) {
+			String newLine = System.lineSeparator();
+			StringBuilder builder = new StringBuilder(64 + 16 * route.size());
+			builder.append("> Flight Information:").append(newLine)
+					.append("  From: ").append(origin).append(newLine)
+					.append("  To: ").append(destination).append(newLine)
+					.append("  Cost: $").append(dollars()).append(newLine)
+					.append("  Route: ");
+			for (int i = 0; i < route.size(); i++)
+				builder.append(route.get(i)).append(i == route.size() - 1 ? "" : " -> ");
+			builder.append(newLine);
+			bytes = info = builder.toString().getBytes(StandardCharsets.UTF_8);
+		}
+		return bytes;
+	}
+
+
+	private byte[] jsonBytes() {
+		byte[] bytes = json;
+		if (bytes == null) {
+			StringBuilder builder = new StringBuilder(96 + 16 * route.size());
+			builder.append("{\"origin\":");
+			appendJsonString(builder, origin);
+			builder.append(",\"destination\":");
+			appendJsonString(builder, destination);
+			builder.append(",\"cost\":").append(dollars());
+			builder.append(",\"costInCents\":").append(cents);
+			builder.append(",\"route\":[");
+			for (int i = 0; i < route.size(); i++) {
+				if (i > 0)
+					builder.append(',');
+				appendJsonString(builder, route.get(i));
+			}
+			builder.append("]}");
+			bytes = json = builder.toString().getBytes(StandardCharsets.UTF_8);
+		}
+		return bytes;
+	}
+
+
+	// cost as dollars and cents, e.g. 145.05
+	private String dollars() {
+		return String.format("%d.%02d", cents / 100, cents % 100);
+	}
+
+
+	private static void appendJsonString(StringBuilder builder, String value) {
+		builder.append('"');
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c == '"' || c == '\\')
+				builder.append('\\').append(c);
+			else if (c < 0x20)
+				builder.append(String.format("\\u%04x", (int) c));
+			else
+				builder.append(c);
+		}
+		builder.append('"');
 	}
-	
-	
 
 }
@@ -0,0 +1,258 @@
+// LoadSimulation.java
+
+package airlinereservation;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Headless load and soak driver for Airline.
+// Usage: java airlinereservation.LoadSimulation [threads] [seconds] [seed]
+// Each thread draws its own operations from a Random seeded with seed + thread number, so every
+// thread issues the same sequence of requests on every run; only their interleaving varies.
+// Origins and destinations of searches and bookings follow a Zipf distribution over the cities (new york is
+// the most popular); fare updates pick one of the airline's direct routes uniformly, so every update is a write.
+// At the end it prints the throughput and latency percentiles of each operation and the GC activity.
+public class LoadSimulation {
+
+	private static final int DEFAULT_THREADS = 4;
+	private static final int DEFAULT_SECONDS = 10;
+	private static final long DEFAULT_SEED = 42;
+
+	// Zipf exponent for city popularity
+	private static final double ZIPF_EXPONENT = 1.0;
+
+	// operation mix in percent; the rest are fare updates
+	private static final int SEARCH_PERCENT = 70;
+	private static final int BOOK_PERCENT = 25;
+
+	// fare updates move a fare by at most this percentage
+	private static final int MAX_FARE_CHANGE_PERCENT = 10;
+
+	private static final String[] OPERATIONS = {"search", "book", "fare update"};
+	private static final int SEARCH = 0;
+	private static final int BOOK = 1;
+	private static final int FARE_UPDATE = 2;
+
+
+	public static void main(String[] args) throws InterruptedException {
+		int threads = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_THREADS;
+		int seconds = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_SECONDS;
+		long seed = args.length > 2 ? Long.parseLong(args[2]) : DEFAULT_SEED;
+		if (threads < 1 || seconds < 1)
+			throw new IllegalArgumentException("threads and seconds must be >= 1");
+
+		Airline airline = new Airline();
+		double[] popularity = zipfCumulative(airline.getCities().length, ZIPF_EXPONENT);
+
+		System.out.printf("Simulating %d thread(s) for %d second(s) with seed %d...%n", threads, seconds, seed);
+
+		long gcCountBefore = gcCount();
+		long gcTimeBefore = gcTime();
+		long start = System.nanoTime();
+		long deadline = start + seconds * 1_000_000_000L;
+
+		List<Worker> workers = new ArrayList<>();
+		for (int i = 0; i < threads; i++) {
+			Worker worker = new Worker(airline, popularity, new Random(seed + i), deadline);
+			workers.add(worker);
+			worker.start();
+		}
+		for (Worker worker: workers)
+			worker.join();
+
+		double elapsed = (System.nanoTime() - start) / 1e9;
+
+		// merge the per thread results
+		Histogram[] latencies = new Histogram[OPERATIONS.length];
+		for (int op = 0; op < OPERATIONS.length; op++) {
+			latencies[op] = new Histogram();
+			for (Worker worker: workers)
+				latencies[op].add(worker.latencies[op]);
+		}
+
+		printReport(latencies, elapsed, airline.getBookings(), gcCount() - gcCountBefore, gcTime() - gcTimeBefore);
+	}
+
+
+	public static void printReport(Histogram[] latencies, double elapsed, long bookings, long gcCount, long gcMillis) {
+		long total = 0;
+		for (Histogram h: latencies)
+			total += h.count();
+
+		System.out.printf("%nOperations: %d in %.2f s (%.0f ops/s), bookings made: %d%n", total, elapsed, total / elapsed, bookings);
+		System.out.printf("%-12s %10s %10s %10s %10s %10s %10s%n", "operation", "count", "ops/s", "p50 us", "p90 us", "p99 us", "p99.9 us");
+		for (int op = 0; op < OPERATIONS.length; op++) {
+			Histogram h = latencies[op];
+			System.out.printf("%-12s %10d %10.0f %10.1f %10.1f %10.1f %10.1f%n",
+					OPERATIONS[op], h.count(), h.count() / elapsed,
+					h.percentile(50) / 1e3, h.percentile(90) / 1e3, h.percentile(99) / 1e3, h.percentile(99.9) / 1e3);
+		}
+
+		Runtime runtime = Runtime.getRuntime();
+		System.out.printf("GC: %d collection(s), %d ms total; heap used at end: %d MB%n",
+				gcCount, gcMillis, (runtime.totalMemory() - runtime.freeMemory()) >> 20);
+	}
+
+
+	// cumulative probabilities of a Zipf distribution over ranks 1 to n: rank k has weight 1 / k^exponent
+	public static double[] zipfCumulative(int n, double exponent) {
+		double[] cumulative = new double[n];
+		double sum = 0;
+		for (int k = 0; k < n; k++) {
+			sum += 1 / Math.pow(k + 1, exponent);
+			cumulative[k] = sum;
+		}
+		for (int k = 0; k < n; k++)
+			cumulative[k] /= sum;
+		return cumulative;
+	}
+
+
+	// index drawn from the distribution described by cumulative
+	public static int sample(double[] cumulative, Random random) {
+		double u = random.nextDouble();
+		int low = 0;
+		int high = cumulative.length - 1;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (cumulative[mid] <= u)
+				low = mid + 1;
+			else
+				high = mid;
+		}
+		return low;
+	}
+
+
+	public static long gcCount() {
+		long count = 0;
+		for (GarbageCollectorMXBean gc: ManagementFactory.getGarbageCollectorMXBeans())
+			count += Math.max(0, gc.getCollectionCount());
+		return count;
+	}
+
+
+	public static long gcTime() {
+		long time = 0;
+		for (GarbageCollectorMXBean gc: ManagementFactory.getGarbageCollectorMXBeans())
+			time += Math.max(0, gc.getCollectionTime());
+		return time;
+	}
+
+
+	// one simulated client, issuing operations until the deadline
+	private static class Worker extends Thread {
+
+		private Airline airline;
+		private String[] cities;
+		private String[][] routes;
+		private double[] popularity;
+		private Random random;
+		private long deadline;
+		private Histogram[] latencies = new Histogram[OPERATIONS.length];
+
+		Worker(Airline airline, double[] popularity, Random random, long deadline) {
+			this.airline = airline;
+			this.cities = airline.getCities();
+			this.routes = airline.getRoutes();
+			this.popularity = popularity;
+			this.random = random;
+			this.deadline = deadline;
+			for (int op = 0; op < OPERATIONS.length; op++)
+				latencies[op] = new Histogram();
+		}
+
+		@Override
+		public void run() {
+			while (System.nanoTime() < deadline) {
+				int roll = random.nextInt(100);
+				int op = roll < SEARCH_PERCENT ? SEARCH : roll < SEARCH_PERCENT + BOOK_PERCENT ? BOOK : FARE_UPDATE;
+
+				// choose the request before timing it
+				String origin;
+				String destination;
+				if (op == FARE_UPDATE) {
+					String[] route = routes[random.nextInt(routes.length)];
+					origin = route[0];
+					destination = route[1];
+				}
+				else {
+					origin = cities[sample(popularity, random)];
+					destination = cities[sample(popularity, random)];
+					while (destination.equals(origin))
+						destination = cities[sample(popularity, random)];
+				}
+				int fareClass = random.nextInt(airline.getFareClasses().length);
+				int changePercent = random.nextInt(2 * MAX_FARE_CHANGE_PERCENT + 1) - MAX_FARE_CHANGE_PERCENT;
+
+				long begin = System.nanoTime();
+				switch (op) {
+				case SEARCH:
+					airline.findCheapest(origin, destination, fareClass);
+					break;
+				case BOOK:
+					airline.book(origin, destination, fareClass);
+					break;
+				default:
+					airline.adjustFare(origin, destination, fareClass, changePercent);
+				}
+				latencies[op].record(System.nanoTime() - begin);
+			}
+		}
+	}
+
+
+	// log-linear latency histogram in nanoseconds: each power of two is split into 8 buckets,
+	// so a reported percentile is within 12.5% of the real value and recording never allocates
+	public static class Histogram {
+
+		private static final int SUB_BUCKETS = 8;
+		private long[] counts = new long[64 * SUB_BUCKETS];
+		private long count;
+
+		public void record(long nanos) {
+			counts[bucket(Math.max(0, nanos))]++;
+			count++;
+		}
+
+		public void add(Histogram other) {
+			for (int i = 0; i < counts.length; i++)
+				counts[i] += other.counts[i];
+			count += other.count;
+		}
+
+		public long count() {
+			return count;
+		}
+
+		// smallest value of the bucket holding the given percentile, 0 if nothing was recorded
+		public long percentile(double percent) {
+			long rank = (long) Math.ceil(count * percent / 100);
+			long seen = 0;
+			for (int i = 0; i < counts.length; i++) {
+				seen += counts[i];
+				if (seen >= rank && seen > 0)
+					return lowerBound(i);
+			}
+			return 0;
+		}
+
+		private static int bucket(long value) {
+			if (value < SUB_BUCKETS)
+				return (int) value;
+			int exponent = 63 - Long.numberOfLeadingZeros(value);
+			return (exponent - 2) * SUB_BUCKETS + (int) ((value >>> (exponent - 3)) & (SUB_BUCKETS - 1));
+		}
+
+		private static long lowerBound(int bucket) {
+			if (bucket < SUB_BUCKETS)
+				return bucket;
+			int exponent = bucket / SUB_BUCKETS + 2;
+			return (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << (exponent - 3);
+		}
+	}
+
+}
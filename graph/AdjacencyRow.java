@@ -0,0 +1,31 @@
+// AdjacencyRow.java
+
+package graph;
+
+// The edges leaving one vertex of a Graph, with their weights in every fare class.
+// Graph keeps every row in memory as a dense array per fare class; LazyGraph keeps only some rows
+// resident and stores their weights sparsely. Graph and the shortest path code fetch a row once per
+// operation and then work on it, so a row is never looked up again for each of its edges.
+// Targets passed to these methods must be valid vertex numbers; Graph checks them before calling.
+abstract class AdjacencyRow {
+
+	// the edge bitset of the row, laid out as described in the Graph invariant. Callers must not modify it.
+	abstract long[] edges();
+
+	// weight of the edge to target in fareClass; target must be a neighbor
+	abstract long weight(int fareClass, int target);
+
+	// changes the weight of the edge to target in fareClass; target must be a neighbor
+	abstract void setWeight(int fareClass, int target, long weight);
+
+	// adds an edge to target if there is none. The weights of a new edge must be set before it is used.
+	abstract void connect(int target);
+
+	// removes the edge to target if there is one
+	abstract void disconnect(int target);
+
+	boolean isEdge(int target) {
+		return (edges()[target >>> 6] & (1L << target)) != 0;
+	}
+
+}
@@ -0,0 +1,20 @@
+// AdjacencyStore.java
+
+package graph;
+
+/******************************************************************************
+ * An <CODE>AdjacencyStore</CODE> is the backing store of a <CODE>LazyGraph</CODE>.
+ * It keeps one encoded adjacency row per vertex and hands it back on request.
+ * The store does not interpret the rows; the encoding belongs to <CODE>LazyGraph</CODE>.
+ *
+ * @since Oct 18, 2026
+ ******************************************************************************/
+public interface AdjacencyStore {
+
+	// returns the row last stored for vertex, or null if no row was ever stored for it
+	long[] load(int vertex);
+
+	// replaces the row of vertex. The store may keep the array, so callers must not modify it afterwards.
+	void store(int vertex, long[] row);
+
+}
@@ -0,0 +1,257 @@
+// DeltaStepping.java
+
+package graph;
+
+import java.util.Arrays;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.IntStream;
+
+// Parallel single source shortest paths (delta-stepping) used by DijkstrasResult.computeParallel.
+//
+// Distances are found with delta-stepping: vertices are kept in buckets of width delta by tentative distance,
+// and the smallest non-empty bucket is settled by relaxing the light edges (weight <= delta) of its vertices
+// in parallel until the bucket stays empty, then their heavy edges once. Distances live in an AtomicLongArray
+// and are only ever lowered with compareAndSet.
+//
+// Predecessors are then rebuilt from the final distances by replaying the order in which the sequential
+// algorithm settles vertices (increasing distance, lowest vertex number first among the vertices already
+// reached), so the result is identical to DijkstrasResult.compute, including how ties are broken.
+class DeltaStepping {
+
+	// graphs smaller than this are faster to solve sequentially
+	static final int SEQUENTIAL_THRESHOLD = 2048;
+
+	// true if running in parallel on this graph can pay off
+	static boolean worthwhile(Graph<?> graph) {
+		return graph.size() >= SEQUENTIAL_THRESHOLD
+				&& graph.concurrentReads()
+				&& ForkJoinPool.getCommonPoolParallelism() > 1;
+	}
+
+
+	// distances must be filled with DijkstrasResult.INFINITY and predecessors with -1
+	static void compute(Graph<?> graph, int source, int fareClass, long[] distances, int[] predecessors) {
+		AtomicLongArray tentative = new AtomicLongArray(distances);
+		tentative.set(source, 0);
+
+		findDistances(graph, fareClass, source, tentative, tuneDelta(graph, fareClass));
+		for (int v = 0; v < distances.length; v++)
+			distances[v] = tentative.get(v);
+
+		findPredecessors(graph, fareClass, source, distances, predecessors);
+	}
+
+
+	// bucket width: the largest weight divided by the average out-degree, as suggested by Meyer and Sanders.
+	// Wide buckets mean fewer phases but more re-relaxation; narrow buckets mean the opposite.
+	static long tuneDelta(Graph<?> graph, int fareClass) {
+		int n = graph.size();
+		long edgeCount = 0;
+		long maxWeight = 0;
+		for (int u = 0; u < n; u++) {
+			AdjacencyRow row = graph.row(u);
+			long[] edges = row.edges();
+			for (int v = Graph.nextSetBit(edges, 0, n); v != -1; v = Graph.nextSetBit(edges, v + 1, n)) {
+				edgeCount++;
+				maxWeight = Math.max(maxWeight, row.weight(fareClass, v));
+			}
+		}
+
+		double averageDegree = Math.max(1.0, (double) edgeCount / n);
+		return Math.max(1, (long) (maxWeight / averageDegree));
+	}
+
+
+	private static void findDistances(Graph<?> graph, int fareClass, int source, AtomicLongArray tentative, long delta) {
+		int n = graph.size();
+		TreeMap<Long, IntList> buckets = new TreeMap<>();
+		bucketOf(buckets, 0).add(source);
+
+		// inFrontier[v] == round means v is already in the frontier of this round;
+		// inSettled[v] means v is already in the settled list of the current bucket
+		int[] inFrontier = new int[n];
+		boolean[] inSettled = new boolean[n];
+		int round = 0;
+
+		while (!buckets.isEmpty()) {
+			long index = buckets.firstKey();
+			IntList settled = new IntList();
+
+			IntList bucket;
+			while ((bucket = buckets.remove(index)) != null) {
+				round++;
+
+				// drop stale entries whose distance has since moved to a lower bucket, and duplicates
+				IntList frontier = new IntList();
+				for (int k = 0; k < bucket.size; k++) {
+					int v = bucket.items[k];
+					if (tentative.get(v) / delta != index || inFrontier[v] == round)
+						continue;
+					inFrontier[v] = round;
+					frontier.add(v);
+					if (!inSettled[v]) {
+						inSettled[v] = true;
+						settled.add(v);
+					}
+				}
+
+				int[] improved = relax(graph, fareClass, tentative, frontier, delta, true);
+				for (int v: improved)
+					bucketOf(buckets, tentative.get(v) / delta).add(v);
+			}
+
+			int[] improved = relax(graph, fareClass, tentative, settled, delta, false);
+			for (int v: improved)
+				bucketOf(buckets, tentative.get(v) / delta).add(v);
+
+			for (int k = 0; k < settled.size; k++)
+				inSettled[settled.items[k]] = false;
+		}
+	}
+
+
+	// relaxes the light (weight <= delta) or heavy edges of every vertex in the list in parallel
+	// returns the vertices whose tentative distance was lowered (possibly with repeats)
+	private static int[] relax(Graph<?> graph, int fareClass, AtomicLongArray tentative, IntList vertices, long delta, boolean light) {
+		int n = graph.size();
+		return IntStream.range(0, vertices.size).parallel().flatMap(k -> {
+			int u = vertices.items[k];
+			long du = tentative.get(u);
+			AdjacencyRow row = graph.row(u);
+			long[] edges = row.edges();
+			IntStream.Builder lowered = IntStream.builder();
+
+			for (int v = Graph.nextSetBit(edges, 0, n); v != -1; v = Graph.nextSetBit(edges, v + 1, n)) {
+				long w = row.weight(fareClass, v);
+				if ((w <= delta) != light)
+					continue;
+
+				long candidate = DijkstrasResult.add(du, w);
+				long current = tentative.get(v);
+				while (candidate < current) {
+					if (tentative.compareAndSet(v, current, candidate)) {
+						lowered.add(v);
+						break;
+					}
+					current = tentative.get(v);
+				}
+			}
+			return lowered.build();
+		}).toArray();
+	}
+
+
+	// replays the sequential settle order over the final distances:
+	// groups of equal distance are settled in increasing order of distance, and inside a group the lowest
+	// numbered vertex that has already been reached goes first. The first settled vertex that reaches a
+	// vertex with its final distance becomes its predecessor, exactly as in DijkstrasResult.compute.
+	private static void findPredecessors(Graph<?> graph, int fareClass, int source, long[] distances, int[] predecessors) {
+		int n = graph.size();
+
+		// distinct finite distances in increasing order; group[v] is the rank of distances[v] among them
+		long[] levels = Arrays.stream(distances).filter(d -> d != DijkstrasResult.INFINITY).sorted().distinct().toArray();
+		int[] group = new int[n];
+		int[] start = new int[levels.length + 1];
+		for (int v = 0; v < n; v++) {
+			if (distances[v] == DijkstrasResult.INFINITY) {
+				group[v] = -1;
+				continue;
+			}
+			group[v] = Arrays.binarySearch(levels, distances[v]);
+			start[group[v] + 1]++;
+		}
+
+		// counting sort of the reached vertices by group, keeping vertex order inside each group
+		for (int g = 0; g < levels.length; g++)
+			start[g + 1] += start[g];
+		int[] members = new int[start[levels.length]];
+		int[] fill = Arrays.copyOf(start, levels.length);
+		for (int v = 0; v < n; v++)
+			if (group[v] != -1)
+				members[fill[group[v]]++] = v;
+
+		boolean[] settled = new boolean[n];
+		int[] heap = new int[n];
+		for (int g = 0; g < levels.length; g++) {
+			// vertices of this group already reached from an earlier group are available now;
+			// the others are reached through zero weight edges inside the group
+			int heapSize = 0;
+			for (int i = start[g]; i < start[g + 1]; i++) {
+				int v = members[i];
+				if (v == source || predecessors[v] != -1)
+					heapSize = push(heap, heapSize, v);
+			}
+
+			while (heapSize > 0) {
+				int u = heap[0];
+				heapSize = pop(heap, heapSize);
+				settled[u] = true;
+
+				AdjacencyRow row = graph.row(u);
+				long[] edges = row.edges();
+				for (int v = Graph.nextSetBit(edges, 0, n); v != -1; v = Graph.nextSetBit(edges, v + 1, n)) {
+					if (settled[v] || predecessors[v] != -1 || v == source)
+						continue;
+					if (DijkstrasResult.add(distances[u], row.weight(fareClass, v)) != distances[v])
+						continue;
+					predecessors[v] = u;
+					if (group[v] == g)
+						heapSize = push(heap, heapSize, v);
+				}
+			}
+		}
+	}
+
+
+	private static IntList bucketOf(TreeMap<Long, IntList> buckets, long index) {
+		return buckets.computeIfAbsent(index, i -> new IntList());
+	}
+
+
+	// - - - - binary min-heap of vertex numbers stored in heap[0..size) - - - - //
+
+	private static int push(int[] heap, int size, int v) {
+		int i = size++;
+		while (i > 0 && heap[(i - 1) >>> 1] > v) {
+			heap[i] = heap[(i - 1) >>> 1];
+			i = (i - 1) >>> 1;
+		}
+		heap[i] = v;
+		return size;
+	}
+
+
+	private static int pop(int[] heap, int size) {
+		int last = heap[--size];
+		int i = 0;
+		while (true) {
+			int child = 2 * i + 1;
+			if (child >= size)
+				break;
+			if (child + 1 < size && heap[child + 1] < heap[child])
+				child++;
+			if (heap[child] >= last)
+				break;
+			heap[i] = heap[child];
+			i = child;
+		}
+		heap[i] = last;
+		return size;
+	}
+
+
+	// growable list of vertex numbers, so buckets do not box
+	private static class IntList {
+		int[] items = new int[8];
+		int size;
+
+		void add(int v) {
+			if (size == items.length)
+				items = Arrays.copyOf(items, size * 2);
+			items[size++] = v;
+		}
+	}
+
+}
@@ -3,25 +3,36 @@
 package graph;
 
 import java.util.Arrays;
-import java.util.HashSet;
-import java.util.LinkedList;
-import java.util.Set;
 
 public class DijkstrasResult<T> {
 	
+	// distance of a vertex that has no path from the source
+	public static final long INFINITY = Long.MAX_VALUE;
+	
 	private int source;
+	private int fareClass;
 	private Graph<T> graph;
-	private int[] distances;
+	private long[] distances;
 	private int[] predecessors;
 	
 	// Graph arg cannot be null or empty
+	// distances are computed with the weights of fare class 0
 	public DijkstrasResult(Graph<T> graph, int source) {
+		this(graph, source, 0);
+	}
+	
+	// Graph arg cannot be null or empty
+	// fareClass must be in the range 0 to graph.fareClasses()-1
+	public DijkstrasResult(Graph<T> graph, int source, int fareClass) {
 		if (graph == null || graph.size() == 0) 
 			throw new IllegalArgumentException("impossible to calculate dijkstra's result for a null or empty graph");
 		if (source < 0)
 			throw new IllegalArgumentException("vertex must be >= 0");
+		if (fareClass < 0 || fareClass >= graph.fareClasses())
+			throw new IllegalArgumentException("fare class must be in the range 0 to " + (graph.fareClasses() - 1));
 		
 		this.source = source;
+		this.fareClass = fareClass;
 		this.graph = graph;
 		
 		reset();
@@ -29,10 +40,10 @@ public class DijkstrasResult<T> {
 	}
 	
 	private void reset() {
-		distances = new int[graph.size()];
+		distances = new long[graph.size()];
 		predecessors = new int[graph.size()];
-		Arrays.fill(distances, -1); // -1 sub for infinity/unknown
-		Arrays.fill(predecessors, -1); // -1 sub for infinity/unknown
+		Arrays.fill(distances, INFINITY);
+		Arrays.fill(predecessors, -1); // -1 sub for no predecessor
 	}
 	
 	// source must be in graph -> ArrayIndexOutOfBoundException if not
@@ -47,14 +58,14 @@ public class DijkstrasResult<T> {
 		reset();
 		distances[source] = 0;
 
-		Set<Integer> allowedVertices = new HashSet<>();
+		boolean[] allowedVertices = new boolean[graph.size()];
 
 		for (int processedVertices = 1; processedVertices < graph.size(); processedVertices++) {
 			// find vertex closest to start vertex
 			int smallest = -1;
 			
 			for (int i = 0; i < distances.length; i++) {
-				if (distances[i] == -1 || allowedVertices.contains(i))
+				if (distances[i] == INFINITY || allowedVertices[i])
 					continue;
 				else if (smallest == -1 || distances[i] < distances[smallest])
 					smallest = i;
@@ -64,25 +75,42 @@ public class DijkstrasResult<T> {
 				return;
 			
 			int next = smallest;
-			allowedVertices.add(next);
+			allowedVertices[next] = true;
 
-			int[] neighbors = graph.neighbors(next);
-			for (int n: neighbors) {
-				if (!allowedVertices.contains(n)) {
-					int sum = distances[next] + graph.getEdgeWeight(next, n);
-					if (distances[n] == -1 || sum < distances[n]) {
+			// fetch next's row once, then walk the set bits of its edges without allocating,
+			// reading weights from the chosen fare class
+			AdjacencyRow row = graph.row(next);
+			long[] edges = row.edges();
+			int size = graph.size();
+			for (int n = Graph.nextSetBit(edges, 0, size); n != -1; n = Graph.nextSetBit(edges, n + 1, size)) {
+				if (!allowedVertices[n]) {
+					long sum = add(distances[next], row.weight(fareClass, n));
+					if (sum < distances[n]) {
 						distances[n] = sum;
 						predecessors[n] = next;
 					}
 				}
-
 			}
 		}
 
 	}
 	
+	// same result as compute(), but the distances are found with parallel delta-stepping.
+	// Graphs below DeltaStepping.SEQUENTIAL_THRESHOLD vertices (or that cannot be read from several
+	// threads, or when only one processor is available) are computed sequentially instead.
+	// The graph must not change while this runs.
+	public void computeParallel() {
+		if (!DeltaStepping.worthwhile(graph)) {
+			compute();
+			return;
+		}
+		
+		reset();
+		DeltaStepping.compute(graph, source, fareClass, distances, predecessors);
+	}
+	
 	public boolean pathExists(int target) {
-		return distances[target] != -1;
+		return distances[target] != INFINITY;
 	}
 	
 	public boolean pathExists(T target) {
@@ -97,15 +125,12 @@ public class DijkstrasResult<T> {
 		if (!pathExists(target))
 			return null;
 		
-		LinkedList<Integer> path = new LinkedList<Integer>();
-		int vertexOnPath = target;
-		path.addFirst(vertexOnPath);
-		while (vertexOnPath != source) {
-			vertexOnPath = predecessors[vertexOnPath];
-			path.addFirst(vertexOnPath);
-		}
+		int[] vertices = pathVertices(target);
+		Integer[] path = new Integer[vertices.length];
+		for (int i = 0; i < vertices.length; i++)
+			path[i] = vertices[i];
 		
-		return new Path<Integer>(path, distances[target]);
+		return new Path<Integer>(Arrays.asList(path), distances[target]);
 
 	}
 	
@@ -114,19 +139,21 @@ public class DijkstrasResult<T> {
 	}
 	
 	
+	// every vertex on the path must have a label - IllegalStateException otherwise
+	@SuppressWarnings("unchecked")
 	public Path<T> getLabeledPath(int target) {
 		if (!pathExists(target))
 			return null;
 		
-		LinkedList<T> path = new LinkedList<T>();
-		int vertexOnPath = target;
-		path.addFirst(graph.getLabel(vertexOnPath));
-		while (vertexOnPath != source) {
-			vertexOnPath = predecessors[vertexOnPath];
-			path.addFirst(graph.getLabel(vertexOnPath));
+		int[] vertices = pathVertices(target);
+		T[] path = (T[]) new Object[vertices.length];
+		for (int i = 0; i < vertices.length; i++) {
+			path[i] = graph.getLabel(vertices[i]);
+			if (path[i] == null)
+				throw new IllegalStateException("vertex " + vertices[i] + " on the path has no label");
 		}
 		
-		return new Path<T>(path, distances[target]);
+		return new Path<T>(Arrays.asList(path), distances[target]);
 	}
 	
 	
@@ -135,6 +162,11 @@ public class DijkstrasResult<T> {
 	}
 	
 	
+	public int getFareClass() {
+		return fareClass;
+	}
+	
+	
 	public int getSourceIndex() {
 		return source;
 	}
@@ -145,7 +177,8 @@ public class DijkstrasResult<T> {
 	}
 		
 	
-	public int[] distances() {
+	// a vertex with no path from the source has a distance of INFINITY
+	public long[] distances() {
 		return distances;
 	}
 	
@@ -156,6 +189,27 @@ public class DijkstrasResult<T> {
 				source, getSourceLabel(), Arrays.toString(distances));
 	}
 	
+	// weights are >= 0, so a sum too large for a long saturates at INFINITY instead of wrapping around
+	static long add(long distance, long weight) {
+		return weight >= INFINITY - distance ? INFINITY : distance + weight;
+	}
+	
+	// vertices from the source to target, in order; target must be reachable
+	// the path is built straight into an array of the right size, so Path makes the only list copy
+	private int[] pathVertices(int target) {
+		int length = 1;
+		for (int v = target; v != source; v = predecessors[v])
+			length++;
+		
+		int[] vertices = new int[length];
+		int v = target;
+		for (int i = length - 1; i >= 0; i--) {
+			vertices[i] = v;
+			v = predecessors[v];
+		}
+		return vertices;
+	}
+	
 	// helper method for mapping labels to vertex indices
 
 	private int getVertex(T label) {
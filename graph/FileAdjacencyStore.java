@@ -0,0 +1,94 @@
+// FileAdjacencyStore.java
+
+package graph;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/******************************************************************************
+ * A <CODE>FileAdjacencyStore</CODE> is an <CODE>AdjacencyStore</CODE> that keeps
+ * its rows in a local file. Rows are appended to the end of the file and an in-memory
+ * table remembers where the latest copy of each row starts, so only that table
+ * (one offset per vertex) stays resident. Space taken by replaced rows is not
+ * reclaimed, and the file is only meaningful to the store that wrote it.
+ * I/O failures are rethrown as <CODE>UncheckedIOException</CODE>.
+ *
+ * @since Oct 18, 2026
+ ******************************************************************************/
+public class FileAdjacencyStore implements AdjacencyStore, Closeable {
+
+	// Invariant of the FileAdjacencyStore class:
+	//   1. offsets[v] is the file position of the latest row stored for vertex v, or -1 if there is none.
+	//   2. lengths[v] is the number of longs in that row.
+	//   3. end is the file position where the next row will be written.
+	private RandomAccessFile file;
+	private long[] offsets;
+	private int[] lengths;
+	private long end;
+
+
+	// n is the number of vertices. Any existing content of the file is discarded.
+	public FileAdjacencyStore(File file, int n) {
+		try {
+			this.file = new RandomAccessFile(file, "rw");
+			this.file.setLength(0);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		offsets = new long[n];
+		lengths = new int[n];
+		Arrays.fill(offsets, -1);
+	}
+
+
+	@Override
+	public long[] load(int vertex) {
+		if (offsets[vertex] == -1)
+			return null;
+
+		byte[] bytes = new byte[lengths[vertex] * Long.BYTES];
+		try {
+			file.seek(offsets[vertex]);
+			file.readFully(bytes);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+
+		long[] row = new long[lengths[vertex]];
+		ByteBuffer.wrap(bytes).asLongBuffer().get(row);
+		return row;
+	}
+
+
+	@Override
+	public void store(int vertex, long[] row) {
+		// check the vertex before writing anything
+		if (vertex < 0 || vertex >= offsets.length)
+			throw new ArrayIndexOutOfBoundsException("Index " + vertex + " out of bounds for length " + offsets.length);
+
+		ByteBuffer bytes = ByteBuffer.allocate(row.length * Long.BYTES);
+		bytes.asLongBuffer().put(row);
+		try {
+			file.seek(end);
+			file.write(bytes.array());
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+
+		offsets[vertex] = end;
+		lengths[vertex] = row.length;
+		end += bytes.capacity();
+	}
+
+
+	@Override
+	public void close() throws IOException {
+		file.close();
+	}
+
+}
@@ -2,8 +2,10 @@
 
 package graph;
 
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.function.IntConsumer;
 
 /******************************************************************************
  * A <CODE>Graph</CODE> is a weighted, labeled graph with a fixed number of vertices. 
@@ -18,14 +20,25 @@ public class Graph<T> implements Cloneable
 	// Invariant of the Graph class:
 	//   1. The vertex numbers range from 0 to labels.length-1.
 	//   2. For each vertex number i, labels[i] contains the label for vertex i. The label must be unique to that vertex in the entire graph
-	//   3. For any two vertices i and j, edges[i][j] is true if there is a
-	//      vertex from i to j; otherwise edges[i][j] is false. 
-	// 	 4. For any two vertices i and j, if an edge exists between them, then the weight of that
-	//      edge is stored at weights[i][j]. If there is not edge between a vertices i and j, then it doesnt matter what is stored at weights[i][j]
+	//   3. rows[i] holds the edges leaving vertex i. rows[i].edges is a bitset of words(labels.length) longs:
+	//      for any two vertices i and j, bit j (bit j % 64 of rows[i].edges[j / 64]) is set if there is
+	//      an edge from i to j; otherwise it is clear. Bits at positions >= labels.length are always clear.
+	// 	 4. Every edge has one weight per fare class, stored column-wise: rows[i].weights[c] holds the weights
+	//      of fare class c for the edges leaving i. For any two vertices i and j, if an edge exists between them,
+	//      then the weight of that edge in fare class c is stored at rows[i].weights[c][j]. If there is not edge
+	//      between a vertices i and j, then it doesnt matter what is stored there
 	//   5. Weights must be >= 0
-	private boolean[ ][ ] edges;
-	private int[][] weights;
+	//   7. fareClassCount is the number of fare classes.
+	//   Subclasses that keep rows somewhere else leave rows null and override row(int);
+	//   every other method reaches the edges through it, once per operation.
+	private DenseRow[ ] rows;
+	private int fareClassCount;
 	private Object[ ] labels;
+	//   6. reachability is either null or an index that matches the current edges.
+	//      Adding an edge that was already implied keeps it; any other edge change drops it
+	//      and it is rebuilt on the next reachability query.
+	//      It is volatile so an index built by one reader is fully visible to others.
+	private volatile ReachabilityIndex reachability;
 
 
 	// CONSTRUCTORS // 
@@ -47,9 +60,9 @@ public class Graph<T> implements Cloneable
 	 *   Indicates that <CODE>n</CODE> is negative. 
 	 **/   
 	public Graph(int n) {
-		edges = new boolean[n][n];  // All values initially false
 		labels = new Object[n];     // All values initially null
-		weights = new int[n][n];
+		fareClassCount = 1;
+		rows = denseRows(n, 1);     // All edge bits initially clear
 	}
 
 
@@ -71,6 +84,38 @@ public class Graph<T> implements Cloneable
 	 *   Indicates that <CODE>n</CODE> is negative. 
 	 **/   
 	public Graph(int n, T[] labels) {
+		this(n, labels, 1);
+	}
+
+
+	/**
+	 * Initialize a <CODE>Graph</CODE> with <CODE>n</CODE> vertices,
+	 * no edges, specified labels and several fare classes per edge.
+	 * @param <CODE>n</CODE>
+	 *   the number of vertices for this <CODE>Graph<CODE>
+	 * @param labels - an array of size n of unique labels for each vertex
+	 * @param fareClasses - the number of weights stored for every edge. Fare classes are numbered 0 to fareClasses-1.
+	 * <dt><b>Precondition:</b><dd>
+	 *   <CODE>n</CODE> is nonnegative and <CODE>fareClasses</CODE> is positive.
+	 * <dt><b>Postcondition:</b><dd>
+	 *   This <CODE>Graph</CODE> has <CODE>n</CODE> vertices, numbered 
+	 *   <CODE>0<CODE> to <CODE>n-1</CODE>. It has no edges and all
+	 *   vertex labels are set.
+	 * @exception OutOfMemoryError
+	 *   Indicates insufficient memory for the specified number of nodes.
+	 * @exception NegativeArraySizeException
+	 *   Indicates that <CODE>n</CODE> is negative. 
+	 **/   
+	public Graph(int n, T[] labels, int fareClasses) {
+		this(n, labels, fareClasses, true);
+	}
+
+
+	// validates the labels and fare classes; the matrices are only allocated if resident is true
+	Graph(int n, T[] labels, int fareClasses, boolean resident) {
+		if (fareClasses < 1)
+			throw new IllegalArgumentException("there must be at least one fare class");
+
 		// their must be one label per vertex
 		if (labels.length != n) 
 			throw new IllegalArgumentException("Incorrect number of labels");
@@ -86,9 +131,10 @@ public class Graph<T> implements Cloneable
 			throw new IllegalArgumentException("labels must be unique");
 
 
-		edges = new boolean[n][n];  // All values initially false
-		this.labels = labels;     // All values initially null
-		weights = new int[n][n];
+		this.labels = labels;
+		fareClassCount = fareClasses;
+		if (resident)
+			rows = denseRows(n, fareClasses);  // All edge bits initially clear
 
 	}
 
@@ -96,50 +142,134 @@ public class Graph<T> implements Cloneable
 	// EDGES //
 
 	public boolean isEdge(int source, int target) {
-		return edges[source][target];
+		word(target);
+		return row(source).isEdge(target);
 	}
 
 
 	public boolean isEdge(T source, T target) {
-		return edges[getVertex(source)][getVertex(target)];
+		return isEdge(getVertex(source), getVertex(target));
 	}
 
 
 	public void removeEdge(int source, int target) {
-		edges[source][target] = false;
+		word(target);
+		AdjacencyRow row = row(source);
+		if (row.isEdge(target)) {
+			reachability = null;
+			row.disconnect(target);
+		}
 	}
 
 
 	public void removeEdge(T source, T target) {
-		edges[getVertex(source)][getVertex(target)] = false;
+		removeEdge(getVertex(source), getVertex(target));
 	}
 
 
-	public Graph<T> addEdge(int source, int target, int weight) {
+	// every fare class of the edge gets the same weight
+	public Graph<T> addEdge(int source, int target, long weight) {
 		if (weight < 0) 
 			throw new IllegalArgumentException("weights must be >= 0");
 
-		edges[source][target] = true;
-		weights[source][target] = weight;
+		AdjacencyRow row = connect(source, target);
+		for (int c = 0; c < fareClassCount; c++)
+			row.setWeight(c, target, weight);
 		return this;
 	}
 
 
-	public Graph<T> addEdge(T source, T target, int weight) {
+	public Graph<T> addEdge(T source, T target, long weight) {
 		return addEdge(getVertex(source), getVertex(target), weight);
 	}
 
 
+	// fares[c] is the weight of the edge in fare class c. There must be one fare per fare class.
+	public Graph<T> addEdge(int source, int target, long[] fares) {
+		if (fares.length != fareClassCount)
+			throw new IllegalArgumentException("Incorrect number of fares");
+		for (long fare: fares)
+			if (fare < 0)
+				throw new IllegalArgumentException("weights must be >= 0");
+
+		AdjacencyRow row = connect(source, target);
+		for (int c = 0; c < fares.length; c++)
+			row.setWeight(c, target, fares[c]);
+		return this;
+	}
+
+
+	public Graph<T> addEdge(T source, T target, long[] fares) {
+		return addEdge(getVertex(source), getVertex(target), fares);
+	}
+
+
 	// WEIGHTS // 
-	public int getEdgeWeight(int source, int target) {
-		if (edges[source][target]) 
-			return  weights[source][target];
+	// changes the weight of an existing edge in one fare class; there must already be an edge from source to target
+	public Graph<T> setEdgeWeight(int source, int target, int fareClass, long weight) {
+		if (weight < 0) 
+			throw new IllegalArgumentException("weights must be >= 0");
+		if (fareClass < 0 || fareClass >= fareClassCount)
+			throw new ArrayIndexOutOfBoundsException("Index " + fareClass + " out of bounds for length " + fareClassCount);
+		word(target);
+		AdjacencyRow row = row(source);
+		if (!row.isEdge(target))
+			throw new IllegalArgumentException("there is no edge from " + source + " to " + target);
+
+		row.setWeight(fareClass, target, weight);
+		return this;
+	}
+
+
+	public Graph<T> setEdgeWeight(T source, T target, int fareClass, long weight) {
+		return setEdgeWeight(getVertex(source), getVertex(target), fareClass, weight);
+	}
+
+
+	// weight of the edge in fare class 0, or -1 if there is no edge
+	public long getEdgeWeight(int source, int target) {
+		return getEdgeWeight(source, target, 0);
+	}
+
+
+	public long getEdgeWeight(T source, T target) {
+		return getEdgeWeight(getVertex(source), getVertex(target));
+	}
+
+
+	// fareClass must be in the range 0 to fareClasses()-1 - ArrayIndexOutOfBoundsException otherwise
+	// returns -1 if there is no edge
+	public long getEdgeWeight(int source, int target, int fareClass) {
+		if (fareClass < 0 || fareClass >= fareClassCount)
+			throw new ArrayIndexOutOfBoundsException("Index " + fareClass + " out of bounds for length " + fareClassCount);
+		word(target);
+		AdjacencyRow row = row(source);
+		if (row.isEdge(target)) 
+			return  row.weight(fareClass, target);
 		return -1;
 	}
 
 
-	public int getEdgeWeight(T source, T target) {
-		return getEdgeWeight(getVertex(source), getVertex(source));
+	public long getEdgeWeight(T source, T target, int fareClass) {
+		return getEdgeWeight(getVertex(source), getVertex(target), fareClass);
+	}
+
+
+	public int fareClasses() {
+		return fareClassCount;
+	}
+
+
+	// the edges leaving vertex, with their weights. Graph methods call this once per operation.
+	// ArrayIndexOutOfBoundsException if vertex is not a vertex number
+	AdjacencyRow row(int vertex) {
+		return rows[vertex];
+	}
+
+
+	// true if several threads may call row and read the rows at the same time while no edges change
+	boolean concurrentReads() {
+		return true;
 	}
 
 
@@ -206,7 +336,10 @@ public class Graph<T> implements Cloneable
 
 
 	/**
-	 * Recursive method to carry out the work of <CODE>depthFirstPrint</CODE>.
+	 * Method to carry out the work of <CODE>depthFirstPrint</CODE>.
+	 * The search keeps its own stack of vertices instead of recursing once per
+	 * vertex, so it cannot overflow the call stack on large graphs. Vertices are
+	 * visited in the same order as a recursive depth-first search.
 	 * @param <CODE>g</CODE>
 	 *   a nonnull <CODE>Graph</CODE>
 	 * @param <CODE>v</CODE>
@@ -234,19 +367,71 @@ public class Graph<T> implements Cloneable
 	 *   <CODE>marked</CODE> was the wrong size. 
 	 **/
 	public static <T> void depthFirstRecurse(Graph<T> g, int v, boolean[ ] marked) {
-		int[ ] connections = g.neighbors(v);
-		int i;
-		int nextNeighbor;
+		depthFirstVisit(g, v, marked, vertex -> System.out.println(g.getLabel(vertex)));
+	}
 
-		marked[v] = true;
-		System.out.println(g.getLabel(v));
 
-		// Traverse all the neighbors, looking for unmarked vertices:
-		for (i = 0; i < connections.length; i++) {
-			nextNeighbor = connections[i];
-			if (!marked[nextNeighbor])
-				depthFirstRecurse(g, nextNeighbor, marked);
-		} 
+	/**
+	 * Static method to list the vertices of a graph in depth-first order.
+	 * @param <CODE>g</CODE>
+	 *   a nonnull <CODE>Graph</CODE>
+	 * @param <CODE>start</CODE>
+	 *   a vertex number from the <CODE>Graph g</CODE>
+	 * <dt><b>Precondition:</b><dd>
+	 *   <CODE>start</CODE> is nonnegative and less than <CODE>g.size()</CODE>.
+	 * @return
+	 *   the vertex numbers reachable from <CODE>start</CODE>, in the order a
+	 *   depth-first search visits them. The first element is <CODE>start</CODE>.
+	 * @throws NullPointerException
+	 *   Indicates that <CODE>g</CODE> is null.
+	 * @throws ArrayIndexOutOfBoundsException
+	 *   Indicates that the vertex was not a valid vertex number.
+	 **/
+	public static <T> int[ ] depthFirstOrder(Graph<T> g, int start) {
+		boolean[ ] marked = new boolean[g.size( )];
+		int[ ] order = new int[g.size( )];
+		int[ ] count = new int[1];
+
+		depthFirstVisit(g, start, marked, vertex -> order[count[0]++] = vertex);
+		return Arrays.copyOf(order, count[0]);
+	}
+
+
+	// iterative depth-first search shared by the traversal methods
+	// stack[k] is the vertex at depth k, edges[k] its edge bitset (fetched once when the vertex is reached)
+	// and cursor[k] the next neighbor of it still to be examined
+	private static <T> void depthFirstVisit(Graph<T> g, int start, boolean[ ] marked, IntConsumer visitor) {
+		int n = g.size( );
+		int[ ] stack = new int[n];
+		long[ ][ ] edges = new long[n][ ];
+		int[ ] cursor = new int[n];
+		int top = 0;
+
+		marked[start] = true;
+		visitor.accept(start);
+		stack[top] = start;
+		edges[top] = g.row(start).edges();
+		cursor[top] = 0;
+
+		while (top >= 0) {
+			int next = nextSetBit(edges[top], cursor[top], n);
+			while (next != -1 && marked[next])
+				next = nextSetBit(edges[top], next + 1, n);
+
+			// every neighbor of v has been visited, so back up
+			if (next == -1) {
+				top--;
+				continue;
+			}
+
+			cursor[top] = next + 1;
+			marked[next] = true;
+			visitor.accept(next);
+			top++;
+			stack[top] = next;
+			edges[top] = g.row(next).edges();
+			cursor[top] = 0;
+		}
 	}
 
 
@@ -256,11 +441,6 @@ public class Graph<T> implements Cloneable
 	 * this <CODE>Graph</CODE>
 	 * @param <CODE>vertex</CODE>
 	 *   a vertex number
-	 * @param <CODE>target</CODE>
-	 *   a vertex number 
-	 * <dt><b>Precondition:</b><dd>
-	 *   Both <CODE>source</CODE> and <CODE>target</CODE> are nonnegative and
-	 *   less than <CODE>size()</CODE>.
 	 * <dt><b>Precondition:</b><dd>
 	 *   <CODE>vertex</CODE> is nonnegative and
 	 *   less than <CODE>size()</CODE>.
@@ -269,32 +449,98 @@ public class Graph<T> implements Cloneable
 	 *   vertices that are targets for edges with a source at the specified
 	 *   <CODE>vertex</CODE>.
 	 * @exception ArrayIndexOutOfBoundsException
-	 *   Indicates that the <CODE>source</CODE> or <CODE>target</CODE> was not a
-	 *   valid vertex number.
+	 *   Indicates that <CODE>vertex</CODE> was not a valid vertex number.
 	 **/
 	public int[ ] neighbors(int vertex) {
-		int i;
-		int count;
+		long[ ] row = row(vertex).edges();
 
 		// First count how many edges have the vertex as their source
-		count = 0;
-		for (i = 0; i < labels.length; i++) 
-			if (edges[vertex][i])
-				count++;
+		int count = 0;
+		for (long bits: row)
+			count += Long.bitCount(bits);
 
 		// Allocate the array for the answer
 		int[] answer = new int[count];
 
-		// Fill the array for the answer
+		// Fill the array for the answer, one set bit at a time
 		count = 0;
-		for (i = 0; i < labels.length; i++)
-			if (edges[vertex][i])
-				answer[count++] = i;
+		for (int w = 0; w < row.length; w++) {
+			long bits = row[w];
+			while (bits != 0) {
+				answer[count++] = (w << 6) + Long.numberOfTrailingZeros(bits);
+				bits &= bits - 1;
+			}
+		}
 
 		return answer;
 	}
 
 
+	/**
+	 * Accessor method to step through the neighbors of a vertex without
+	 * allocating an array.
+	 * @param <CODE>vertex</CODE>
+	 *   a vertex number
+	 * @param <CODE>from</CODE>
+	 *   the vertex number to start looking at
+	 * <dt><b>Precondition:</b><dd>
+	 *   <CODE>vertex</CODE> is nonnegative and less than <CODE>size()</CODE>.
+	 *   <CODE>from</CODE> is nonnegative.
+	 * @return
+	 *   the smallest neighbor of <CODE>vertex</CODE> that is &gt;= <CODE>from</CODE>,
+	 *   or -1 if there is none. All neighbors are visited by starting at 0 and
+	 *   passing the previous answer + 1 until -1 is returned.
+	 * @exception ArrayIndexOutOfBoundsException
+	 *   Indicates that <CODE>vertex</CODE> was not a valid vertex number.
+	 **/
+	public int nextNeighbor(int vertex, int from) {
+		return nextSetBit(row(vertex).edges(), from, labels.length);
+	}
+
+
+	// smallest set bit of row that is >= from and < limit, or -1 if there is none
+	static int nextSetBit(long[ ] row, int from, int limit) {
+		if (from >= limit)
+			return -1;
+
+		int w = from >>> 6;
+		long bits = row[w] & (-1L << from);
+		while (bits == 0) {
+			if (++w == row.length)
+				return -1;
+			bits = row[w];
+		}
+		return (w << 6) + Long.numberOfTrailingZeros(bits);
+	}
+
+
+	// REACHABILITY //
+	
+	// returns an index over the current edges, rebuilding it only if edges changed since the last query
+	public ReachabilityIndex reachability() {
+		// read the volatile field once so a concurrent edge change cannot make this return null
+		ReachabilityIndex index = reachability;
+		if (index == null) {
+			index = new ReachabilityIndex(this);
+			reachability = index;
+		}
+		return index;
+	}
+	
+	
+	// source and target must be in this graph - ArrayIndexOutOfBoundsException otherwise
+	// true if there is a path (possibly of one vertex) from source to target
+	// answered from the reachability index, so no search is needed once the index is built
+	public boolean pathExists(int source, int target) {
+		return reachability().reaches(source, target);
+	}
+	
+	
+	public boolean pathExists(T source, T target) {
+		return pathExists(getVertex(source), getVertex(target));
+	}
+
+
 	// DISTANCE & PATHS // 
 	
 	// dijkstrasAlgorithm overloads //
@@ -305,10 +551,10 @@ public class Graph<T> implements Cloneable
 	//		3. methods for retrieving the Path from the source to a target. If there is no path, null is returned instead of a Path.
 	// 		   (Path contains the vertices making up the path and the total weight of the path)
 	
+	// the overloads without a fareClass use fare class 0
+	
 	public DijkstrasResult<T> dijkstrasAlgorithm(int source) {
-		DijkstrasResult<T> result = new DijkstrasResult<>(this, source);
-		result.compute();
-		return result;
+		return dijkstrasAlgorithm(source, 0);
 	}
 
 
@@ -316,6 +562,44 @@ public class Graph<T> implements Cloneable
 		return dijkstrasAlgorithm(getVertex(source));
 	}
 
+
+	public DijkstrasResult<T> dijkstrasAlgorithm(int source, int fareClass) {
+		DijkstrasResult<T> result = new DijkstrasResult<>(this, source, fareClass);
+		result.compute();
+		return result;
+	}
+
+
+	public DijkstrasResult<T> dijkstrasAlgorithm(T source, int fareClass) {
+		return dijkstrasAlgorithm(getVertex(source), fareClass);
+	}
+
+	
+	// parallelDijkstrasAlgorithm overloads //
+	// same contract and same result as dijkstrasAlgorithm, but large graphs are solved with parallel delta-stepping
+	// (see DijkstrasResult.computeParallel). The graph must not change while the search runs.
+	
+	public DijkstrasResult<T> parallelDijkstrasAlgorithm(int source) {
+		return parallelDijkstrasAlgorithm(source, 0);
+	}
+
+
+	public DijkstrasResult<T> parallelDijkstrasAlgorithm(T source) {
+		return parallelDijkstrasAlgorithm(getVertex(source));
+	}
+
+
+	public DijkstrasResult<T> parallelDijkstrasAlgorithm(int source, int fareClass) {
+		DijkstrasResult<T> result = new DijkstrasResult<>(this, source, fareClass);
+		result.computeParallel();
+		return result;
+	}
+
+
+	public DijkstrasResult<T> parallelDijkstrasAlgorithm(T source, int fareClass) {
+		return parallelDijkstrasAlgorithm(getVertex(source), fareClass);
+	}
+
 	
 	// findShortestLabeledPath and findShortestPath overloads
 	// the source and target must be in the graph - ArrayIndexOutOfBoundException otherwise
@@ -324,9 +608,7 @@ public class Graph<T> implements Cloneable
 	// 		and the path consists of one vertex, the source/target, and has a weight of 0
 	
 	public Path<T> findShortestLabeledPath(int source, int target) {
-		// get distances
-		DijkstrasResult<T> result = dijkstrasAlgorithm(source);
-		return result.getLabeledPath(target);
+		return findShortestLabeledPath(source, target, 0);
 	}
 
 
@@ -334,10 +616,20 @@ public class Graph<T> implements Cloneable
 		return findShortestLabeledPath(getVertex(source), getVertex(target));
 	}
 
-	public Path<Integer> findShortestPath(int source, int target) {
+
+	public Path<T> findShortestLabeledPath(int source, int target, int fareClass) {
 		// get distances
-		DijkstrasResult<T> result = dijkstrasAlgorithm(source);
-		return result.getPath(target);
+		DijkstrasResult<T> result = dijkstrasAlgorithm(source, fareClass);
+		return result.getLabeledPath(target);
+	}
+
+
+	public Path<T> findShortestLabeledPath(T source, T target, int fareClass) {
+		return findShortestLabeledPath(getVertex(source), getVertex(target), fareClass);
+	}
+
+	public Path<Integer> findShortestPath(int source, int target) {
+		return findShortestPath(source, target, 0);
 	}
 
 
@@ -346,6 +638,18 @@ public class Graph<T> implements Cloneable
 	}
 
 
+	public Path<Integer> findShortestPath(int source, int target, int fareClass) {
+		// get distances
+		DijkstrasResult<T> result = dijkstrasAlgorithm(source, fareClass);
+		return result.getPath(target);
+	}
+
+
+	public Path<Integer> findShortestPath(T source, T target, int fareClass) {
+		return findShortestPath(getVertex(source), getVertex(target), fareClass);
+	}
+
+
 	// UTILITY //
 	public int size() {
 		return labels.length;
@@ -373,9 +677,11 @@ public class Graph<T> implements Cloneable
 			throw new RuntimeException("Hmmm this should not be happening");
 		}
 
-		answer.edges = (boolean [][]) edges.clone();
+		// copy every row so the clone does not share adjacency with this graph
+		answer.rows = new DenseRow[rows.length];
+		for (int i = 0; i < rows.length; i++)
+			answer.rows[i] = rows[i].copy();
 		answer.labels = (Object []) labels.clone();
-		answer.weights = (int [][]) weights.clone();
 
 		return answer;
 	}
@@ -389,6 +695,43 @@ public class Graph<T> implements Cloneable
 	}
 
 
+	// sets the edge bit, keeping the reachability index if the edge does not change reachability
+	// returns the row of source so the caller can set the weights of the edge
+	private AdjacencyRow connect(int source, int target) {
+		word(target);
+		AdjacencyRow row = row(source);
+
+		// a new edge only changes reachability if target was not already reachable from source
+		ReachabilityIndex index = reachability;
+		if (index != null && !index.reaches(source, target))
+			reachability = null;
+		row.connect(target);
+		return row;
+	}
+
+
+	private static DenseRow[ ] denseRows(int n, int fareClasses) {
+		DenseRow[ ] rows = new DenseRow[n];
+		for (int i = 0; i < n; i++)
+			rows[i] = new DenseRow(new long[words(n)], new long[fareClasses][n]);
+		return rows;
+	}
+
+
+	// number of longs needed for a bitset row of n vertices
+	private static int words(int n) {
+		return (n + 63) >>> 6;
+	}
+
+
+	// index of the bitset word holding target, checking target the way the old boolean matrix did
+	private int word(int target) {
+		if (target >= labels.length)
+			throw new ArrayIndexOutOfBoundsException("Index " + target + " out of bounds for length " + labels.length);
+		return target >>> 6;
+	}
+
+
 	// helper method for mapping labels to vertex indices
 	private int getVertexIndex(T label) {
 		for (int i = 0; i < labels.length; i++) 
@@ -397,4 +740,49 @@ public class Graph<T> implements Cloneable
 		return -1;
 	}
 
+
+
+	// a row kept in memory: the edge bitset and one weight array per fare class, indexed by target
+	private static class DenseRow extends AdjacencyRow {
+		private long[ ] edges;
+		private long[ ][ ] weights;
+
+		DenseRow(long[ ] edges, long[ ][ ] weights) {
+			this.edges = edges;
+			this.weights = weights;
+		}
+
+		@Override
+		long[ ] edges() {
+			return edges;
+		}
+
+		@Override
+		long weight(int fareClass, int target) {
+			return weights[fareClass][target];
+		}
+
+		@Override
+		void setWeight(int fareClass, int target, long weight) {
+			weights[fareClass][target] = weight;
+		}
+
+		@Override
+		void connect(int target) {
+			edges[target >>> 6] |= 1L << target;
+		}
+
+		@Override
+		void disconnect(int target) {
+			edges[target >>> 6] &= ~(1L << target);
+		}
+
+		DenseRow copy() {
+			long[ ][ ] weightsCopy = new long[weights.length][];
+			for (int c = 0; c < weights.length; c++)
+				weightsCopy[c] = weights[c].clone();
+			return new DenseRow(edges.clone(), weightsCopy);
+		}
+	}
+
 }
@@ -0,0 +1,290 @@
+// LazyGraph.java
+
+package graph;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/******************************************************************************
+ * A <CODE>LazyGraph</CODE> is a <CODE>Graph</CODE> whose adjacency rows are not
+ * all kept in memory. Each vertex's row (its edges and their weights in every fare
+ * class) lives in an <CODE>AdjacencyStore</CODE> and is loaded the first time it is
+ * needed. At most <CODE>capacity</CODE> rows are resident at once; when a new row
+ * is loaded, the least recently used one is evicted and written back if it changed.
+ * Shortest path searches therefore only load the rows of vertices they expand.
+ * <p>
+ * Resident rows keep their weights sparse, one entry per edge, so a resident row of a vertex
+ * with d edges costs about n/5 + 8&middot;d&middot;fareClasses bytes (its edge bitset, a per-word
+ * count of the bits before it, and the weights), not a dense array of n weights.
+ * <p>
+ * Cloning a <CODE>LazyGraph</CODE> returns an ordinary in-memory <CODE>Graph</CODE>
+ * with the same vertices and edges, independent of the store.
+ *
+ * @since Oct 18, 2026
+ ******************************************************************************/
+public class LazyGraph<T> extends Graph<T> {
+
+	// Invariant of the LazyGraph class:
+	//   1. cache holds at most capacity rows, in least to most recently used order.
+	//   2. A row in cache that differs from the copy in store has dirty set to true.
+	//   3. A vertex with no row in store has no edges.
+	//   4. A row is encoded in store as the words of its edge bitset followed, for each fare class
+	//      in turn, by the weights of its edges in increasing order of target.
+	//   5. hits + misses is the number of rows requested through row(int): Graph and the shortest path
+	//      code request a row once per operation and then work on the returned row.
+	private AdjacencyStore store;
+	private int capacity;
+	private Map<Integer, SparseRow> cache;
+	private long hits;
+	private long misses;
+	private long evictions;
+
+
+	/**
+	 * Initialize a <CODE>LazyGraph</CODE> with <CODE>n</CODE> vertices and
+	 * specified labels, whose rows are kept in <CODE>store</CODE>.
+	 * @param <CODE>n</CODE>
+	 *   the number of vertices for this <CODE>LazyGraph<CODE>
+	 * @param labels - an array of size n of unique labels for each vertex
+	 * @param fareClasses - the number of weights stored for every edge
+	 * @param store - the backing store holding the rows. Rows it already holds must have been written by a <CODE>LazyGraph</CODE> of the same size and fare classes.
+	 * @param capacity - the maximum number of rows kept in memory
+	 * <dt><b>Precondition:</b><dd>
+	 *   <CODE>n</CODE> is nonnegative, <CODE>fareClasses</CODE> and <CODE>capacity</CODE> are positive,
+	 *   and <CODE>store</CODE> is not null.
+	 **/
+	public LazyGraph(int n, T[] labels, int fareClasses, AdjacencyStore store, int capacity) {
+		super(n, labels, fareClasses, false);
+		if (store == null)
+			throw new IllegalArgumentException("store cannot be null");
+		if (capacity < 1)
+			throw new IllegalArgumentException("capacity must be >= 1");
+
+		this.store = store;
+		this.capacity = capacity;
+		cache = new LinkedHashMap<Integer, SparseRow>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Integer, SparseRow> eldest) {
+				if (size() <= LazyGraph.this.capacity)
+					return false;
+				writeBack(eldest.getKey(), eldest.getValue());
+				evictions++;
+				return true;
+			}
+		};
+	}
+
+
+	// ROWS //
+
+	// returns the row of vertex, loading it from the store on a miss
+	@Override
+	SparseRow row(int vertex) {
+		if (vertex < 0 || vertex >= size())
+			throw new ArrayIndexOutOfBoundsException("Index " + vertex + " out of bounds for length " + size());
+
+		SparseRow row = cache.get(vertex);
+		if (row != null) {
+			hits++;
+			return row;
+		}
+
+		misses++;
+		row = decode(store.load(vertex));
+		cache.put(vertex, row);
+		return row;
+	}
+
+
+	// loading a row reorders the cache, so rows cannot be read from several threads
+	@Override
+	boolean concurrentReads() {
+		return false;
+	}
+
+
+	// writes every changed row back to the store; the rows stay resident
+	public void flush() {
+		for (Map.Entry<Integer, SparseRow> entry: cache.entrySet())
+			writeBack(entry.getKey(), entry.getValue());
+	}
+
+
+	// CACHE STATISTICS //
+
+	public int capacity() {
+		return capacity;
+	}
+
+
+	public int residentRows() {
+		return cache.size();
+	}
+
+
+	public long hits() {
+		return hits;
+	}
+
+
+	public long misses() {
+		return misses;
+	}
+
+
+	public long evictions() {
+		return evictions;
+	}
+
+
+	// fraction of row lookups answered from memory, 0 if there were none
+	public double hitRate() {
+		long lookups = hits + misses;
+		return lookups == 0 ? 0 : (double) hits / lookups;
+	}
+
+
+	// UTILITY //
+
+	// returns an in-memory Graph (not a LazyGraph) with the same labels, edges and weights.
+	// Every row is read once, so building the copy goes through the cache like any other scan.
+	@Override
+	public Object clone() {
+		int n = size();
+		Graph<T> answer = new Graph<T>(n, getLabels().clone(), fareClasses());
+		long[] fares = new long[fareClasses()];
+		for (int v = 0; v < n; v++) {
+			SparseRow row = row(v);
+			int rank = 0;
+			for (int t = nextSetBit(row.edges, 0, n); t != -1; t = nextSetBit(row.edges, t + 1, n), rank++) {
+				for (int c = 0; c < fares.length; c++)
+					fares[c] = row.weights[c][rank];
+				answer.addEdge(v, t, fares);
+			}
+		}
+		return answer;
+	}
+
+
+	@Override
+	public String toString() {
+		return String.format("%s%nResident rows: %d/%d, hits: %d, misses: %d, evictions: %d",
+				super.toString(), residentRows(), capacity, hits, misses, evictions);
+	}
+
+
+	private void writeBack(int vertex, SparseRow row) {
+		if (row.dirty) {
+			store.store(vertex, encode(row));
+			row.dirty = false;
+		}
+	}
+
+
+	private long[] encode(SparseRow row) {
+		long[] encoded = new long[row.edges.length + row.degree * row.weights.length];
+		System.arraycopy(row.edges, 0, encoded, 0, row.edges.length);
+		int i = row.edges.length;
+		for (long[] weights: row.weights) {
+			System.arraycopy(weights, 0, encoded, i, row.degree);
+			i += row.degree;
+		}
+		return encoded;
+	}
+
+
+	private SparseRow decode(long[] encoded) {
+		int words = (size() + 63) >>> 6;
+		SparseRow row = new SparseRow();
+		row.edges = new long[words];
+		row.before = new int[words];
+		row.weights = new long[fareClasses()][];
+		if (encoded != null)
+			System.arraycopy(encoded, 0, row.edges, 0, words);
+
+		for (int w = 0; w < words; w++) {
+			row.before[w] = row.degree;
+			row.degree += Long.bitCount(row.edges[w]);
+		}
+
+		int i = words;
+		for (int c = 0; c < row.weights.length; c++) {
+			row.weights[c] = encoded == null ? new long[0] : Arrays.copyOfRange(encoded, i, i + row.degree);
+			i += row.degree;
+		}
+		return row;
+	}
+
+
+	// one resident adjacency row, with its weights stored sparsely:
+	//   weights[c][k] is the weight in fare class c of the k-th edge in increasing order of target,
+	//   and before[w] is the number of edges whose target is in a word of edges before word w,
+	//   so the rank of an edge is found in constant time. Every change sets dirty.
+	private static class SparseRow extends AdjacencyRow {
+		long[] edges;
+		int[] before;
+		long[][] weights;
+		int degree;
+		boolean dirty;
+
+		@Override
+		long[] edges() {
+			return edges;
+		}
+
+		@Override
+		long weight(int fareClass, int target) {
+			return weights[fareClass][rank(target)];
+		}
+
+		@Override
+		void setWeight(int fareClass, int target, long weight) {
+			weights[fareClass][rank(target)] = weight;
+			dirty = true;
+		}
+
+		@Override
+		void connect(int target) {
+			if (isEdge(target))
+				return;
+
+			int k = rank(target);
+			for (int c = 0; c < weights.length; c++) {
+				long[] grown = weights[c].length > degree ? weights[c] : Arrays.copyOf(weights[c], Math.max(4, degree * 2));
+				System.arraycopy(weights[c], k, grown, k + 1, degree - k);
+				grown[k] = 0;
+				weights[c] = grown;
+			}
+			edges[target >>> 6] |= 1L << target;
+			for (int w = (target >>> 6) + 1; w < before.length; w++)
+				before[w]++;
+			degree++;
+			dirty = true;
+		}
+
+		@Override
+		void disconnect(int target) {
+			if (!isEdge(target))
+				return;
+
+			int k = rank(target);
+			for (long[] classWeights: weights)
+				System.arraycopy(classWeights, k + 1, classWeights, k, degree - k - 1);
+			edges[target >>> 6] &= ~(1L << target);
+			for (int w = (target >>> 6) + 1; w < before.length; w++)
+				before[w]--;
+			degree--;
+			dirty = true;
+		}
+
+		// number of edges whose target is smaller than target
+		private int rank(int target) {
+			int w = target >>> 6;
+			return before[w] + Long.bitCount(edges[w] & ((1L << target) - 1));
+		}
+	}
+
+}
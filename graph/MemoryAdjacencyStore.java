@@ -0,0 +1,33 @@
+// MemoryAdjacencyStore.java
+
+package graph;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/******************************************************************************
+ * A <CODE>MemoryAdjacencyStore</CODE> is an <CODE>AdjacencyStore</CODE> that keeps
+ * its rows in a hash map keyed by vertex. It stands in for an embedded key-value
+ * store, and is useful for testing a <CODE>LazyGraph</CODE> without touching the disk.
+ *
+ * @since Oct 18, 2026
+ ******************************************************************************/
+public class MemoryAdjacencyStore implements AdjacencyStore {
+
+	private Map<Integer, long[]> rows = new HashMap<>();
+
+	@Override
+	public long[] load(int vertex) {
+		return rows.get(vertex);
+	}
+
+	@Override
+	public void store(int vertex, long[] row) {
+		rows.put(vertex, row);
+	}
+
+	public int size() {
+		return rows.size();
+	}
+
+}
@@ -4,31 +4,27 @@ package graph;
 
 import java.util.List;
 
+// A Path is immutable, so the same Path can be shared by every caller that asks for it
 public class Path<T> {
 
-	private List<T> path;
-	private int weight;
+	private final List<T> path;
+	private final long weight;
 	
-	public Path(List<T> path, int weight) {
-		this.path = path;
+	// the vertices are copied, so later changes to the list do not affect this Path
+	// the vertices cannot be null - NullPointerException otherwise
+	public Path(List<T> path, long weight) {
+		this.path = List.copyOf(path);
 		this.weight = weight;
 	}
 
+	// the returned list cannot be modified, and List.copyOf returns it without copying
 	public List<T> getPath() {
 		return path;
 	}
 
-	public void setPath(List<T> path) {
-		this.path = path;
-	}
-
-	public int getWeight() {
+	public long getWeight() {
 		return weight;
 	}
-
-	public void setWeight(int weight) {
-		this.weight = weight;
-	}
 	
 	@Override
 	public String toString() {
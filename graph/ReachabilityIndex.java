@@ -0,0 +1,166 @@
+// ReachabilityIndex.java
+
+package graph;
+
+import java.util.Arrays;
+
+/******************************************************************************
+ * A <CODE>ReachabilityIndex</CODE> answers "is there any path from u to v" for a
+ * <CODE>Graph</CODE> in constant time. The vertices are grouped into strongly
+ * connected components (iterative Tarjan), and for every component of the
+ * condensation DAG the set of components it can reach is stored as a bitset.
+ * The index is a snapshot: it does not see edges changed after it was built.
+ * <CODE>Graph.pathExists</CODE> keeps an up to date index for its graph.
+ *
+ * @since Oct 18, 2026
+ ******************************************************************************/
+public class ReachabilityIndex {
+
+	// Invariant of the ReachabilityIndex class:
+	//   1. component[v] is the strongly connected component of vertex v, numbered 0 to componentCount-1.
+	//   2. Components are numbered in reverse topological order of the condensation DAG:
+	//      every edge between two different components goes from a higher number to a lower one.
+	//   3. Bit d of closure[c] is set if component c can reach component d (including d == c).
+	private int[] component;
+	private int componentCount;
+	private long[][] closure;
+
+
+	// graph cannot be null
+	public ReachabilityIndex(Graph<?> graph) {
+		if (graph == null)
+			throw new IllegalArgumentException("impossible to index a null graph");
+
+		findComponents(graph);
+		buildClosure(graph);
+	}
+
+
+	// u and v must be in the indexed graph -> ArrayIndexOutOfBoundsException if not
+	// every vertex reaches itself
+	public boolean reaches(int u, int v) {
+		int d = component[v];
+		return (closure[component[u]][d >>> 6] & (1L << d)) != 0;
+	}
+
+
+	public boolean stronglyConnected(int u, int v) {
+		return component[u] == component[v];
+	}
+
+
+	public int componentOf(int vertex) {
+		return component[vertex];
+	}
+
+
+	public int componentCount() {
+		return componentCount;
+	}
+
+
+	// iterative Tarjan so that long chains of vertices cannot overflow the call stack
+	private void findComponents(Graph<?> graph) {
+		int n = graph.size();
+		int[] order = new int[n];      // discovery number, -1 if not visited yet
+		int[] low = new int[n];
+		int[] stack = new int[n];      // Tarjan's stack of vertices without a component yet
+		int[] call = new int[n];       // simulated call stack
+		int[] cursor = new int[n];     // next neighbor to examine for each frame of the call stack
+		long[][] edges = new long[n][]; // edge bitset of each frame's vertex, fetched once per vertex
+		int counter = 0;
+		int sp = 0;
+
+		component = new int[n];
+		Arrays.fill(order, -1);
+		Arrays.fill(component, -1);
+
+		for (int root = 0; root < n; root++) {
+			if (order[root] != -1)
+				continue;
+
+			int top = 0;
+			call[top] = root;
+			edges[top] = graph.row(root).edges();
+			cursor[top] = 0;
+			order[root] = low[root] = counter++;
+			stack[sp++] = root;
+
+			while (top >= 0) {
+				int v = call[top];
+				int w = Graph.nextSetBit(edges[top], cursor[top], n);
+
+				if (w != -1) {
+					cursor[top] = w + 1;
+					if (order[w] == -1) {
+						// descend into w
+						top++;
+						call[top] = w;
+						edges[top] = graph.row(w).edges();
+						cursor[top] = 0;
+						order[w] = low[w] = counter++;
+						stack[sp++] = w;
+					}
+					else if (component[w] == -1) {
+						// w is still on Tarjan's stack
+						low[v] = Math.min(low[v], order[w]);
+					}
+					continue;
+				}
+
+				// all neighbors of v are done; v is the root of a component if nothing below reached higher
+				if (low[v] == order[v]) {
+					int x;
+					do {
+						x = stack[--sp];
+						component[x] = componentCount;
+					} while (x != v);
+					componentCount++;
+				}
+
+				top--;
+				if (top >= 0)
+					low[call[top]] = Math.min(low[call[top]], low[v]);
+			}
+		}
+	}
+
+
+	// components are in reverse topological order, so every successor of c in the
+	// condensation DAG has a smaller number and its closure is already complete
+	private void buildClosure(Graph<?> graph) {
+		int n = graph.size();
+		int words = (componentCount + 63) >>> 6;
+
+		// group vertices by component so each component's edges can be scanned together
+		int[] start = new int[componentCount + 1];
+		for (int v = 0; v < n; v++)
+			start[component[v] + 1]++;
+		for (int c = 0; c < componentCount; c++)
+			start[c + 1] += start[c];
+		int[] members = new int[n];
+		int[] fill = Arrays.copyOf(start, componentCount);
+		for (int v = 0; v < n; v++)
+			members[fill[component[v]]++] = v;
+
+		closure = new long[componentCount][words];
+		for (int c = 0; c < componentCount; c++) {
+			long[] reach = closure[c];
+			reach[c >>> 6] |= 1L << c;
+
+			for (int i = start[c]; i < start[c + 1]; i++) {
+				long[] edges = graph.row(members[i]).edges();
+				for (int w = Graph.nextSetBit(edges, 0, n); w != -1; w = Graph.nextSetBit(edges, w + 1, n)) {
+					int d = component[w];
+					// skip edges inside c and successors whose closure is already included
+					if (d == c || (reach[d >>> 6] & (1L << d)) != 0)
+						continue;
+					long[] other = closure[d];
+					for (int k = 0; k < words; k++)
+						reach[k] |= other[k];
+				}
+			}
+		}
+	}
+
+}